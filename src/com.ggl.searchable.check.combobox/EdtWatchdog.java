@@ -0,0 +1,340 @@
+package com.ggl.searchable.check.combobox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * This class times the Event Dispatch Thread tasks that the searchable,
+ * checkbox, combobox runs. Each task is recorded by name in a
+ * <code>LatencyHistogram</code>. The watchdog is opt-in. Create one and pass
+ * it to the <code>setEdtWatchdog</code> method of the
+ * <code>SearchableCheckComboBox</code> before the panel is created.
+ * </p>
+ *
+ * <p>
+ * After the <code>start</code> method is called, a daemon sampler thread
+ * watches the running task. When a task runs longer than the stall threshold,
+ * the sampler captures the stack trace of the Event Dispatch Thread while the
+ * task is still running. Without the sampler, stalls are still counted, but
+ * no stack trace is captured.
+ * </p>
+ *
+ * <p>
+ * The histograms and stall samples can be read at any time, or written out
+ * with the <code>exportReport</code> method, so a soak test can catch jank
+ * regressions.
+ * </p>
+ *
+ * @since 1.8
+ * @version 1
+ *
+ * @see LatencyHistogram
+ * @see SearchableCheckComboBox
+ */
+public class EdtWatchdog {
+
+	private static final int MAXIMUM_STALL_SAMPLES = 100;
+
+	private final long stallThresholdNanos;
+
+	private long stallCount;
+
+	private int depth;
+
+	private final List<StallSample> stallSamples;
+
+	private final Map<String, LatencyHistogram> histograms;
+
+	private Timer timer;
+
+	private volatile long taskSequence;
+
+	private volatile long taskStartTime;
+
+	private volatile boolean taskRunning;
+
+	private final AtomicLong sampledSequence;
+
+	private volatile String taskName;
+
+	private volatile Thread taskThread;
+
+	/**
+	 * This constructor creates the watchdog.
+	 *
+	 * @param stallThresholdMillis - The number of milliseconds a task can run
+	 *                             before it's considered a stall.
+	 */
+	public EdtWatchdog(long stallThresholdMillis) {
+		if (stallThresholdMillis < 1L) {
+			throw new IllegalArgumentException(
+					"The stall threshold must be at least 1 millisecond");
+		}
+		this.stallThresholdNanos = TimeUnit.MILLISECONDS
+				.toNanos(stallThresholdMillis);
+		this.stallSamples = new ArrayList<>();
+		this.histograms = new LinkedHashMap<>();
+		this.sampledSequence = new AtomicLong();
+	}
+
+	/**
+	 * This method starts the daemon sampler thread that captures stack traces
+	 * of stalled tasks. The sampler checks the running task twice per stall
+	 * threshold.
+	 */
+	public synchronized void start() {
+		if (timer != null) {
+			return;
+		}
+
+		long period = Math.max(1L,
+				TimeUnit.NANOSECONDS.toMillis(stallThresholdNanos) / 2L);
+		timer = new Timer("EdtWatchdog", true);
+		timer.schedule(new SamplerTask(), period, period);
+	}
+
+	/**
+	 * This method stops the daemon sampler thread. The recorded histograms
+	 * and stall samples are kept.
+	 */
+	public synchronized void stop() {
+		if (timer != null) {
+			timer.cancel();
+			timer = null;
+		}
+	}
+
+	/**
+	 * <p>
+	 * This method runs and times a task. Nested tasks are timed in their own
+	 * histograms, but only the outermost task is watched for stalls, so a
+	 * stall is reported once.
+	 * </p>
+	 * 
+	 * <p>
+	 * This method <strong>must</strong> only be called on the Event Dispatch
+	 * Thread. The outermost task tracking isn't synchronized, so calls from
+	 * two threads would corrupt it.
+	 * </p>
+	 *
+	 * @param name - The name of the task histogram.
+	 * @param task - The task to run.
+	 */
+	public void execute(String name, Runnable task) {
+		boolean outermost = depth == 0;
+		long startTime = System.nanoTime();
+		if (outermost) {
+			taskName = name;
+			taskThread = Thread.currentThread();
+			taskStartTime = startTime;
+			taskSequence++;
+			taskRunning = true;
+		}
+
+		depth++;
+		try {
+			task.run();
+		} finally {
+			depth--;
+			long duration = System.nanoTime() - startTime;
+			if (outermost) {
+				taskRunning = false;
+				if (duration > stallThresholdNanos) {
+					synchronized (this) {
+						stallCount++;
+					}
+				}
+			}
+			getHistogram(name).recordValue(duration);
+		}
+	}
+
+	/**
+	 * This method returns a copy of the task histograms.
+	 *
+	 * @return - A <code>Map</code> of task names to copies of their
+	 *         <code>LatencyHistogram</code>.
+	 */
+	public synchronized Map<String, LatencyHistogram> getHistograms() {
+		Map<String, LatencyHistogram> copy = new LinkedHashMap<>();
+		for (Map.Entry<String, LatencyHistogram> entry : histograms
+				.entrySet()) {
+			copy.put(entry.getKey(), entry.getValue().copy());
+		}
+		return copy;
+	}
+
+	/**
+	 * This method returns the captured stall samples. Only the first 100
+	 * samples are kept.
+	 *
+	 * @return - A <code>List</code> of <code>StallSample</code> instances.
+	 */
+	public synchronized List<StallSample> getStallSamples() {
+		return Collections.unmodifiableList(new ArrayList<>(stallSamples));
+	}
+
+	/**
+	 * This method returns the number of outermost tasks that ran longer than
+	 * the stall threshold.
+	 *
+	 * @return - The number of stalls.
+	 */
+	public synchronized long getStallCount() {
+		return stallCount;
+	}
+
+	/**
+	 * This method removes all of the recorded histograms and stall samples.
+	 */
+	public synchronized void reset() {
+		histograms.clear();
+		stallSamples.clear();
+		stallCount = 0L;
+	}
+
+	/**
+	 * <p>
+	 * This method returns a tab-separated report of the task histograms,
+	 * followed by the stall samples. Times are in microseconds.
+	 * </p>
+	 *
+	 * @return - The report <code>String</code>.
+	 */
+	public String exportReport() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("task\tcount\tmin\tp50\tp90\tp99\tp99.9\tmax");
+		builder.append(System.lineSeparator());
+		for (Map.Entry<String, LatencyHistogram> entry : getHistograms()
+				.entrySet()) {
+			LatencyHistogram histogram = entry.getValue();
+			builder.append(entry.getKey());
+			builder.append('\t').append(histogram.getTotalCount());
+			appendMicros(builder, histogram.getMinValue());
+			appendMicros(builder, histogram.getValueAtPercentile(50.0));
+			appendMicros(builder, histogram.getValueAtPercentile(90.0));
+			appendMicros(builder, histogram.getValueAtPercentile(99.0));
+			appendMicros(builder, histogram.getValueAtPercentile(99.9));
+			appendMicros(builder, histogram.getMaxValue());
+			builder.append(System.lineSeparator());
+		}
+
+		builder.append("stalls\t").append(getStallCount());
+		builder.append(System.lineSeparator());
+		for (StallSample sample : getStallSamples()) {
+			builder.append(sample);
+		}
+
+		return builder.toString();
+	}
+
+	private void appendMicros(StringBuilder builder, long nanos) {
+		builder.append('\t').append(TimeUnit.NANOSECONDS.toMicros(nanos));
+	}
+
+	private synchronized LatencyHistogram getHistogram(String name) {
+		LatencyHistogram histogram = histograms.get(name);
+		if (histogram == null) {
+			histogram = new LatencyHistogram();
+			histograms.put(name, histogram);
+		}
+		return histogram;
+	}
+
+	private synchronized void addStallSample(StallSample sample) {
+		if (stallSamples.size() < MAXIMUM_STALL_SAMPLES) {
+			stallSamples.add(sample);
+		}
+	}
+
+	/**
+	 * This class checks the running task and captures the stack trace of the
+	 * Event Dispatch Thread once per stalled task.
+	 */
+	private class SamplerTask extends TimerTask {
+
+		@Override
+		public void run() {
+			long sequence = taskSequence;
+			long sampled = sampledSequence.get();
+			if (!taskRunning || sampled >= sequence) {
+				return;
+			}
+
+			String name = taskName;
+			Thread thread = taskThread;
+			long elapsed = System.nanoTime() - taskStartTime;
+			if (sequence != taskSequence || elapsed <= stallThresholdNanos) {
+				return;
+			}
+
+			// The stack trace belongs to this task only if the same task is
+			// still running after the stack trace is captured.
+			StackTraceElement[] stackTrace = thread.getStackTrace();
+			if (!taskRunning || sequence != taskSequence) {
+				return;
+			}
+
+			if (sampledSequence.compareAndSet(sampled, sequence)) {
+				addStallSample(new StallSample(name, elapsed, stackTrace));
+			}
+		}
+
+	}
+
+	/**
+	 * This class holds the stack trace of the Event Dispatch Thread, captured
+	 * while a task was stalled.
+	 */
+	public static class StallSample {
+
+		private final long elapsedNanos;
+
+		private final StackTraceElement[] stackTrace;
+
+		private final String taskName;
+
+		public StallSample(String taskName, long elapsedNanos,
+				StackTraceElement[] stackTrace) {
+			this.taskName = taskName;
+			this.elapsedNanos = elapsedNanos;
+			this.stackTrace = stackTrace;
+		}
+
+		public String getTaskName() {
+			return taskName;
+		}
+
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		public StackTraceElement[] getStackTrace() {
+			return stackTrace.clone();
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			builder.append("stall\t").append(taskName);
+			builder.append('\t').append(
+					TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+			builder.append(System.lineSeparator());
+			for (StackTraceElement element : stackTrace) {
+				builder.append("\tat ").append(element);
+				builder.append(System.lineSeparator());
+			}
+			return builder.toString();
+		}
+
+	}
+
+}
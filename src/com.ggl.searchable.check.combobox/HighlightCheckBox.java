@@ -0,0 +1,166 @@
+package com.ggl.searchable.check.combobox;
+
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Toolkit;
+import java.awt.font.TextLayout;
+import java.util.Map;
+
+import javax.swing.Icon;
+import javax.swing.JCheckBox;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import javax.swing.plaf.basic.BasicGraphicsUtils;
+
+/**
+ * <p>
+ * This class draws an item row of the searchable, checkbox, combobox. The
+ * row draws its own check icon, its display string, and a highlight behind
+ * the part of the display string that matches the search text. This is much
+ * faster than an HTML <code>JCheckBox</code> label.
+ * </p>
+ *
+ * <p>
+ * The row is still a <code>JCheckBox</code>, so clicking, the keyboard, and
+ * the <code>isSelected</code> method work the same as before. Only the
+ * painting is replaced. The icon and text are placed with
+ * <code>SwingUtilities.layoutCompoundLabel</code>, the same way the look and
+ * feel places them, so the alignment and text position of the button are
+ * honored.
+ * </p>
+ *
+ * <p>
+ * The text is drawn and the highlight is measured with the same
+ * <code>TextLayout</code> from the <code>TextLayoutCache</code>, so a display
+ * string is laid out once, no matter how many times it's scrolled or
+ * filtered.
+ * </p>
+ *
+ * @since 1.8
+ * @version 1
+ *
+ * @see TextLayoutCache
+ */
+class HighlightCheckBox extends JCheckBox {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int matchStart, matchLength;
+
+	private final Color highlightColor;
+
+	private final transient TextLayoutCache textLayoutCache;
+
+	/**
+	 * This constructor creates the item row.
+	 *
+	 * @param text            - The display string.
+	 * @param matchStart      - The index of the search text in the display
+	 *                        string, or -1 if there's nothing to highlight.
+	 * @param matchLength     - The length of the search text.
+	 * @param highlightColor  - The highlight <code>Color</code>.
+	 * @param textLayoutCache - The shared <code>TextLayoutCache</code>.
+	 */
+	public HighlightCheckBox(String text, int matchStart, int matchLength,
+			Color highlightColor, TextLayoutCache textLayoutCache) {
+		super(text);
+		this.matchStart = matchStart;
+		this.matchLength = matchLength;
+		this.highlightColor = highlightColor;
+		this.textLayoutCache = textLayoutCache;
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		Graphics2D g2d = (Graphics2D) g.create();
+		try {
+			paintRow(g2d);
+		} finally {
+			g2d.dispose();
+		}
+	}
+
+	private void paintRow(Graphics2D g2d) {
+		if (isOpaque()) {
+			g2d.setColor(getBackground());
+			g2d.fillRect(0, 0, getWidth(), getHeight());
+		}
+
+		Map<?, ?> desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit()
+				.getDesktopProperty("awt.font.desktophints");
+		if (desktopHints != null) {
+			g2d.addRenderingHints(desktopHints);
+		} else {
+			g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+					RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		}
+		g2d.setFont(getFont());
+
+		Icon icon = getIcon();
+		if (icon == null) {
+			icon = UIManager.getIcon("CheckBox.icon");
+		}
+
+		String text = getText();
+		FontMetrics fontMetrics = g2d.getFontMetrics();
+		Insets insets = getInsets();
+		Rectangle viewRect = new Rectangle(insets.left, insets.top,
+				getWidth() - insets.left - insets.right,
+				getHeight() - insets.top - insets.bottom);
+		Rectangle iconRect = new Rectangle();
+		Rectangle textRect = new Rectangle();
+		SwingUtilities.layoutCompoundLabel(this, fontMetrics, text, icon,
+				getVerticalAlignment(), getHorizontalAlignment(),
+				getVerticalTextPosition(), getHorizontalTextPosition(),
+				viewRect, iconRect, textRect,
+				(text == null) ? 0 : getIconTextGap());
+
+		if (icon != null) {
+			icon.paintIcon(this, g2d, iconRect.x, iconRect.y);
+		}
+
+		if (text == null || text.isEmpty()) {
+			return;
+		}
+
+		TextLayout textLayout = textLayoutCache.getTextLayout(text,
+				getFont(), g2d.getFontRenderContext());
+		float x = textRect.x;
+		float y = textRect.y + fontMetrics.getAscent();
+
+		if (isHighlighted()) {
+			Shape highlight = textLayout.getLogicalHighlightShape(matchStart,
+					matchStart + matchLength);
+			g2d.translate(x, y);
+			g2d.setColor(highlightColor);
+			g2d.fill(highlight);
+			g2d.translate(-x, -y);
+		}
+
+		Color foreground = getForeground();
+		Color disabledText = UIManager.getColor("CheckBox.disabledText");
+		if (!isEnabled() && disabledText != null) {
+			foreground = disabledText;
+		}
+		g2d.setColor(foreground);
+		textLayout.draw(g2d, x, y);
+
+		if (isFocusPainted() && hasFocus()) {
+			g2d.setColor(UIManager.getColor("CheckBox.focus"));
+			BasicGraphicsUtils.drawDashedRect(g2d, textRect.x, textRect.y,
+					textRect.width, textRect.height);
+		}
+	}
+
+	private boolean isHighlighted() {
+		return matchStart >= 0 && matchLength > 0
+				&& matchStart + matchLength <= getText().length();
+	}
+
+}
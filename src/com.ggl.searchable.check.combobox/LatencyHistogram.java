@@ -0,0 +1,187 @@
+package com.ggl.searchable.check.combobox;
+
+/**
+ * <p>
+ * This class records latency values in nanoseconds in a fixed set of
+ * logarithmic buckets, in the manner of an HdrHistogram. Each power of two
+ * range is split into 64 linear sub-buckets, so any recorded value can be
+ * reported to within about 1.5 percent, no matter how large it is.
+ * </p>
+ *
+ * <p>
+ * The histogram never allocates after construction, so recording a value is
+ * cheap enough to do on the Event Dispatch Thread. The methods are
+ * synchronized so the histogram can be read and exported from another thread
+ * while the Event Dispatch Thread is recording.
+ * </p>
+ *
+ * @since 1.8
+ * @version 1
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+	private static final int BUCKET_COUNT = Long.SIZE - SUB_BUCKET_BITS;
+
+	private long totalCount, totalValue;
+
+	private long minValue, maxValue;
+
+	private final long[] counts;
+
+	/**
+	 * This constructor creates an empty latency histogram.
+	 */
+	public LatencyHistogram() {
+		this.counts = new long[(BUCKET_COUNT + 1) * SUB_BUCKET_HALF_COUNT];
+		reset();
+	}
+
+	/**
+	 * This method records one latency value.
+	 *
+	 * @param value - The latency in nanoseconds. Negative values are recorded
+	 *              as zero.
+	 */
+	public synchronized void recordValue(long value) {
+		value = Math.max(0L, value);
+		counts[countsIndex(value)]++;
+		totalCount++;
+		totalValue += value;
+		minValue = Math.min(minValue, value);
+		maxValue = Math.max(maxValue, value);
+	}
+
+	/**
+	 * This method removes all of the recorded values.
+	 */
+	public synchronized void reset() {
+		for (int index = 0; index < counts.length; index++) {
+			counts[index] = 0L;
+		}
+		totalCount = 0L;
+		totalValue = 0L;
+		minValue = Long.MAX_VALUE;
+		maxValue = 0L;
+	}
+
+	/**
+	 * This method returns the number of recorded values.
+	 *
+	 * @return - The number of recorded values.
+	 */
+	public synchronized long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * This method returns the smallest recorded value.
+	 *
+	 * @return - The smallest recorded value in nanoseconds, or zero if no
+	 *         values were recorded.
+	 */
+	public synchronized long getMinValue() {
+		return (totalCount == 0L) ? 0L : minValue;
+	}
+
+	/**
+	 * This method returns the largest recorded value.
+	 *
+	 * @return - The largest recorded value in nanoseconds.
+	 */
+	public synchronized long getMaxValue() {
+		return maxValue;
+	}
+
+	/**
+	 * This method returns the mean of the recorded values.
+	 *
+	 * @return - The mean of the recorded values in nanoseconds.
+	 */
+	public synchronized double getMean() {
+		return (totalCount == 0L) ? 0.0 : (double) totalValue / totalCount;
+	}
+
+	/**
+	 * <p>
+	 * This method returns the value at the given percentile. The value returned
+	 * is the highest value that falls in the same bucket as the percentile, but
+	 * never more than the largest recorded value.
+	 * </p>
+	 *
+	 * @param percentile - The percentile, from 0.0 to 100.0.
+	 * @return - The value at the percentile in nanoseconds, or zero if no
+	 *         values were recorded.
+	 */
+	public synchronized long getValueAtPercentile(double percentile) {
+		if (totalCount == 0L) {
+			return 0L;
+		}
+
+		double p = Math.min(Math.max(percentile, 0.0), 100.0);
+		long countAtPercentile = (long) Math.ceil(p / 100.0 * totalCount);
+		countAtPercentile = Math.max(1L, countAtPercentile);
+
+		long runningCount = 0L;
+		for (int index = 0; index < counts.length; index++) {
+			runningCount += counts[index];
+			if (runningCount >= countAtPercentile) {
+				return Math.min(highestEquivalentValue(index), maxValue);
+			}
+		}
+
+		return maxValue;
+	}
+
+	/**
+	 * This method adds the recorded values of another histogram to this
+	 * histogram.
+	 *
+	 * @param other - The <code>LatencyHistogram</code> to add.
+	 */
+	public void add(LatencyHistogram other) {
+		LatencyHistogram copy = other.copy();
+		synchronized (this) {
+			for (int index = 0; index < counts.length; index++) {
+				counts[index] += copy.counts[index];
+			}
+			totalCount += copy.totalCount;
+			totalValue += copy.totalValue;
+			minValue = Math.min(minValue, copy.minValue);
+			maxValue = Math.max(maxValue, copy.maxValue);
+		}
+	}
+
+	/**
+	 * This method returns an independent copy of this histogram.
+	 *
+	 * @return - A copy of this <code>LatencyHistogram</code>.
+	 */
+	public synchronized LatencyHistogram copy() {
+		LatencyHistogram copy = new LatencyHistogram();
+		System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+		copy.totalCount = totalCount;
+		copy.totalValue = totalValue;
+		copy.minValue = minValue;
+		copy.maxValue = maxValue;
+		return copy;
+	}
+
+	private static int countsIndex(long value) {
+		int bucketIndex = Math.max(0, Long.SIZE
+				- Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+		int subBucketIndex = (int) (value >>> bucketIndex);
+		return (bucketIndex * SUB_BUCKET_HALF_COUNT) + subBucketIndex;
+	}
+
+	private static long highestEquivalentValue(int index) {
+		int bucketIndex = Math.max(0,
+				(index / SUB_BUCKET_HALF_COUNT) - 1);
+		int subBucketIndex = index - (bucketIndex * SUB_BUCKET_HALF_COUNT);
+		long value = ((long) (subBucketIndex + 1) << bucketIndex) - 1L;
+		return (value < 0L) ? Long.MAX_VALUE : value;
+	}
+
+}
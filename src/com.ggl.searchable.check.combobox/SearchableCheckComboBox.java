@@ -1,6 +1,7 @@
 package com.ggl.searchable.check.combobox;
 
 import java.awt.BorderLayout;
+import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
@@ -10,6 +11,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.AdjustmentEvent;
 import java.awt.event.AdjustmentListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.swing.BorderFactory;
@@ -64,14 +66,22 @@ import javax.swing.text.Document;
  */
 public class SearchableCheckComboBox<T extends BaseItem> {
 
+	private static final int TEXT_LAYOUT_CACHE_SIZE = 1000;
+
 	private boolean okButtonPressed;
 
-	private int visibleRowCount;
+	private int visibleRowCount, matchLength;
+
+	private int[] matchStarts;
+
+	private Color highlightColor;
 
 	private Dimension itemDimension;
 
 	private DisposeListener listener;
 
+	private EdtWatchdog watchdog;
+
 	private Font font, labelFont;
 
 	private JCheckBox[] itemCheckBoxes;
@@ -82,6 +92,8 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 
 	private JTextField searchField;
 
+	private final TextLayoutCache textLayoutCache;
+
 	/**
 	 * <p>
 	 * This constructor reads the list of items to be displayed in the
@@ -97,6 +109,11 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 		this.selectedItems = new ArrayList<>(allItems);
 		this.font = new Font(Font.DIALOG, Font.PLAIN, 12);
 		this.labelFont = font.deriveFont(Font.BOLD);
+		this.highlightColor = new Color(255, 230, 120);
+		this.textLayoutCache = new TextLayoutCache(TEXT_LAYOUT_CACHE_SIZE);
+		this.matchStarts = new int[this.allItems.size()];
+		Arrays.fill(matchStarts, -1);
+		this.matchLength = 0;
 		this.visibleRowCount = 5;
 		this.okButtonPressed = false;
 	}
@@ -112,6 +129,20 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 	public void setFont(Font font) {
 		this.font = font.deriveFont(Font.PLAIN);
 		this.labelFont = font.deriveFont(Font.BOLD);
+		this.textLayoutCache.clear();
+	}
+
+	/**
+	 * <p>
+	 * This method lets you set the color that highlights the part of each
+	 * displayed item that matches the search text. The default color is a
+	 * light yellow.
+	 * </p>
+	 * 
+	 * @param highlightColor - The desired highlight <code>Color</code>
+	 */
+	public void setHighlightColor(Color highlightColor) {
+		this.highlightColor = highlightColor;
 	}
 
 	/**
@@ -138,6 +169,26 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 		this.listener = listener;
 	}
 
+	/**
+	 * <p>
+	 * This method adds an optional <code>EdtWatchdog</code> to the class. The
+	 * watchdog times the searching, selecting, scrolling, and redisplaying that
+	 * the searchable, checkbox, combobox does on the Event Dispatch Thread.
+	 * </p>
+	 * 
+	 * <p>
+	 * This method should be called before the
+	 * <code>createSearchableCheckComboBox</code> method, so the first build of
+	 * the item rows is timed too.
+	 * </p>
+	 * 
+	 * @param watchdog - The <code>EdtWatchdog</code>, or <code>null</code> to
+	 *                 turn off the timing.
+	 */
+	public void setEdtWatchdog(EdtWatchdog watchdog) {
+		this.watchdog = watchdog;
+	}
+
 	/**
 	 * This method lets the calling class know whether or not the
 	 * <code>OK</code> button was pressed.
@@ -193,8 +244,9 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 
 		panel.add(searchPanel, BorderLayout.NORTH);
 
-		JPanel checkPanel = createCheckPanel();
-		scrollPane = new JScrollPane(checkPanel);
+		scrollPane = new JScrollPane();
+		runTask("createPanel",
+				() -> scrollPane.setViewportView(createCheckPanel()));
 		Dimension d = scrollPane.getPreferredSize();
 		int height = visibleRowCount * itemDimension.height;
 		scrollPane.setPreferredSize(new Dimension(d.width, height));
@@ -219,7 +271,7 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 		String text;
 		try {
 			text = doc.getText(0, doc.getLength());
-			updateScrollBarView(text.toLowerCase());
+			updateScrollBarView(text);
 		} catch (BadLocationException e) {
 			e.printStackTrace();
 		}
@@ -238,24 +290,66 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 		for (T t : allItems) {
 			selectedItems.add(t);
 		}
+		Arrays.fill(matchStarts, -1);
+		matchLength = 0;
 		updateScrollPaneViewPort();
 	}
 
+	/**
+	 * The filter pass saves where the search text was found in each matching
+	 * item, so the highlight doesn't need a second search. The offsets are in
+	 * the coordinates of the displayed text.
+	 */
 	private void updateCheckPanel(String text) {
+		String lowerText = text.toLowerCase();
 		selectedItems.clear();
 		for (T t : allItems) {
-			String displayString = t.toDisplayString().toLowerCase();
-			if (displayString.contains(text)) {
+			int matchStart = indexOfIgnoreCase(t.toDisplayString(), text,
+					lowerText);
+			if (matchStart >= 0) {
+				matchStarts[selectedItems.size()] = matchStart;
 				selectedItems.add(t);
 			}
 		}
+		matchLength = text.length();
 		updateScrollPaneViewPort();
 	}
 
+	/**
+	 * When lower casing keeps the length of the display string, a lower case
+	 * index is also a display string index. Otherwise, as with a capital
+	 * dotted I, the display string is compared region by region, skipping the
+	 * positions where the first character of the search text can't match.
+	 */
+	private int indexOfIgnoreCase(String displayString, String text,
+			String lowerText) {
+		String lowerDisplayString = displayString.toLowerCase();
+		if (lowerDisplayString.length() == displayString.length()) {
+			return lowerDisplayString.indexOf(lowerText);
+		}
+
+		char first = foldCase(text.charAt(0));
+		int last = displayString.length() - text.length();
+		for (int index = 0; index <= last; index++) {
+			if (foldCase(displayString.charAt(index)) == first
+					&& displayString.regionMatches(true, index, text, 0,
+							text.length())) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	private static char foldCase(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
 	private void updateScrollPaneViewPort() {
-		JPanel panel = createCheckPanel();
-		scrollPane.getViewport().removeAll();
-		scrollPane.getViewport().add(panel);
+		runTask("updateViewPort", () -> {
+			JPanel panel = createCheckPanel();
+			scrollPane.getViewport().removeAll();
+			scrollPane.getViewport().add(panel);
+		});
 	}
 
 	private JPanel createCheckPanel() {
@@ -266,7 +360,9 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 		itemCheckBoxes = new JCheckBox[selectedItems.size()];
 		for (int index = 0; index < selectedItems.size(); index++) {
 			T t = selectedItems.get(index);
-			itemCheckBoxes[index] = new JCheckBox(t.toDisplayString());
+			itemCheckBoxes[index] = new HighlightCheckBox(t.toDisplayString(),
+					matchStarts[index], matchLength, highlightColor,
+					textLayoutCache);
 			itemCheckBoxes[index].setFont(font);
 			itemCheckBoxes[index].setSelected(t.isSelected());
 
@@ -295,7 +391,7 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 
 		JButton okButton = new JButton("OK");
 		okButton.addActionListener(event -> {
-			getCheckedState();
+			runTask("ok", () -> getCheckedState());
 			okButtonPressed = true;
 			listener.disposePerformed();
 		});
@@ -319,6 +415,14 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 		}
 	}
 
+	private void runTask(String taskName, Runnable task) {
+		if (watchdog == null) {
+			task.run();
+		} else {
+			watchdog.execute(taskName, task);
+		}
+	}
+
 	private class SelectAllListener implements ActionListener {
 
 		private final boolean b;
@@ -329,8 +433,10 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 
 		@Override
 		public void actionPerformed(ActionEvent event) {
-			setSelection(b);
-			getDocumentText(searchField.getDocument());
+			runTask("selectAll", () -> {
+				setSelection(b);
+				getDocumentText(searchField.getDocument());
+			});
 		}
 
 		private void setSelection(boolean b) {
@@ -350,15 +456,17 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 
 		@Override
 		public void adjustmentValueChanged(AdjustmentEvent event) {
-			JScrollBar scrollBar = (JScrollBar) event.getSource();
-			int value = scrollBar.getValue();
-			int index = value / itemDimension.height;
-			int offset = value % itemDimension.height;
-			if (offset > itemDimension.height / 2) {
-				scrollBar.setValue((index + 1) * itemDimension.height);
-			} else {
-				scrollBar.setValue(index * itemDimension.height);
-			}
+			runTask("scrollBarAdjust", () -> {
+				JScrollBar scrollBar = (JScrollBar) event.getSource();
+				int value = scrollBar.getValue();
+				int index = value / itemDimension.height;
+				int offset = value % itemDimension.height;
+				if (offset > itemDimension.height / 2) {
+					scrollBar.setValue((index + 1) * itemDimension.height);
+				} else {
+					scrollBar.setValue(index * itemDimension.height);
+				}
+			});
 		}
 
 	}
@@ -367,17 +475,17 @@ public class SearchableCheckComboBox<T extends BaseItem> {
 
 		@Override
 		public void insertUpdate(DocumentEvent event) {
-			getDocumentText(event.getDocument());
+			runTask("search", () -> getDocumentText(event.getDocument()));
 		}
 
 		@Override
 		public void removeUpdate(DocumentEvent event) {
-			getDocumentText(event.getDocument());
+			runTask("search", () -> getDocumentText(event.getDocument()));
 		}
 
 		@Override
 		public void changedUpdate(DocumentEvent event) {
-			getDocumentText(event.getDocument());
+			runTask("search", () -> getDocumentText(event.getDocument()));
 		}
 
 	}
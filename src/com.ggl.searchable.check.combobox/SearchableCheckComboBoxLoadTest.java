@@ -0,0 +1,485 @@
+package com.ggl.searchable.check.combobox;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.AbstractButton;
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+/**
+ * <p>
+ * This class is a headless load test of the searchable, checkbox, combobox.
+ * It builds a <code>SearchableCheckComboBox</code> with a generated catalog of
+ * building supplies, then replays a typing session through the search field
+ * document and the buttons, so the same listeners run as when a user types.
+ * Each action is timed on the Event Dispatch Thread, including the layout of
+ * the panel.
+ * </p>
+ *
+ * <p>
+ * The typing session is a text file with one action per line. Blank lines and
+ * lines starting with # are ignored. The actions are:
+ * <ul>
+ * <li>type <i>text</i> - Types the text, one keystroke at a time.</li>
+ * <li>backspace <i>count</i> - Deletes the last count characters, one
+ * keystroke at a time.</li>
+ * <li>paste <i>text</i> - Inserts the text in one edit.</li>
+ * <li>clear - Deletes the search text in one edit.</li>
+ * <li>selectall - Presses the <code>Select All</code> button.</li>
+ * <li>deselectall - Presses the <code>Deselect All</code> button.</li>
+ * <li>ok - Presses the <code>OK</code> button.</li>
+ * </ul>
+ * A built-in session is used when no session file is given.
+ * </p>
+ *
+ * <p>
+ * The arguments are <code>name=value</code> pairs:
+ * <ul>
+ * <li>items - The catalog size. The default is 10000.</li>
+ * <li>iterations - The number of timed session replays. It must be at
+ * least 1. The default is 20.</li>
+ * <li>warmup - The number of untimed session replays. The default is 3.</li>
+ * <li>seed - The catalog random seed. The default is 42.</li>
+ * <li>session - The typing session file.</li>
+ * <li>stall - Attaches an <code>EdtWatchdog</code> with this stall threshold
+ * in milliseconds and prints its report.</li>
+ * <li>budget.<i>action</i>.<i>statistic</i> - The latency budget in
+ * milliseconds for an action and a statistic of p50, p99, or max. The action
+ * can be * to apply the budget to every action. The budget must be a finite,
+ * non-negative number. A budget for an action that
+ * isn't in the typing session is rejected, so a misspelled budget can't
+ * silently pass.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * The program exits with a return code of 1 when a budget is exceeded, so it
+ * can fail a continuous integration build.
+ * </p>
+ *
+ * @since 1.8
+ * @version 1
+ *
+ * @see EdtWatchdog
+ * @see LatencyHistogram
+ */
+public class SearchableCheckComboBoxLoadTest {
+
+	private static final String[] DEFAULT_SESSION = { "type 2x4", "backspace 3",
+			"type oak", "selectall", "backspace 3", "paste pine", "deselectall",
+			"clear", "type lumber 12", "selectall", "clear", "ok" };
+
+	private static final String[] ACTIONS = { "type", "backspace", "paste",
+			"clear", "selectall", "deselectall", "ok" };
+
+	private static final String[] STATISTICS = { "p50", "p99", "max" };
+
+	public static void main(String[] args) {
+		if (System.getProperty("java.awt.headless") == null) {
+			System.setProperty("java.awt.headless", "true");
+		}
+
+		try {
+			SearchableCheckComboBoxLoadTest loadTest =
+					new SearchableCheckComboBoxLoadTest(parseArguments(args));
+			boolean passed = loadTest.run();
+			System.exit(passed ? 0 : 1);
+		} catch (IllegalArgumentException | IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+		}
+	}
+
+	private final int itemCount, iterations, warmupIterations;
+
+	private final long seed, stallMillis;
+
+	private final List<String> session;
+
+	private final Map<String, Double> budgets;
+
+	private final Map<String, LatencyHistogram> histograms;
+
+	private Document document;
+
+	private EdtWatchdog watchdog;
+
+	private JButton selectAllButton, deselectAllButton, okButton;
+
+	private JPanel panel;
+
+	private JTextField searchField;
+
+	public SearchableCheckComboBoxLoadTest(Map<String, String> arguments)
+			throws IOException {
+		this.itemCount = Integer.parseInt(
+				arguments.getOrDefault("items", "10000"));
+		this.iterations = Integer.parseInt(
+				arguments.getOrDefault("iterations", "20"));
+		if (iterations < 1) {
+			throw new IllegalArgumentException(
+					"The iterations must be at least 1: " + iterations);
+		}
+		this.warmupIterations = Integer.parseInt(
+				arguments.getOrDefault("warmup", "3"));
+		this.seed = Long.parseLong(arguments.getOrDefault("seed", "42"));
+		this.stallMillis = Long.parseLong(
+				arguments.getOrDefault("stall", "0"));
+		this.session = readSession(arguments.get("session"));
+		this.budgets = readBudgets(arguments, session);
+		this.histograms = new LinkedHashMap<>();
+	}
+
+	/**
+	 * This method builds the searchable, checkbox, combobox, replays the
+	 * typing session, and prints the latency report.
+	 *
+	 * @return - A boolean indicating whether or not every budget was met.
+	 */
+	public boolean run() {
+		invokeAndWait(() -> createComboBox());
+
+		for (int iteration = 0; iteration < warmupIterations; iteration++) {
+			replaySession(false);
+		}
+		if (watchdog != null) {
+			watchdog.reset();
+			watchdog.start();
+		}
+		for (int iteration = 0; iteration < iterations; iteration++) {
+			replaySession(true);
+		}
+		if (watchdog != null) {
+			watchdog.stop();
+		}
+
+		printReport();
+		if (watchdog != null) {
+			System.out.println();
+			System.out.print(watchdog.exportReport());
+		}
+
+		return checkBudgets();
+	}
+
+	private void createComboBox() {
+		SearchableCheckComboBox<ExampleItem> comboBox =
+				new SearchableCheckComboBox<>(generateItemList());
+		comboBox.addDisposeListener(() -> {
+		});
+		if (stallMillis > 0L) {
+			watchdog = new EdtWatchdog(stallMillis);
+			comboBox.setEdtWatchdog(watchdog);
+		}
+
+		panel = comboBox.createSearchableCheckComboBox();
+		panel.setSize(panel.getPreferredSize());
+		panel.validate();
+
+		searchField = findComponent(panel, JTextField.class, null);
+		document = searchField.getDocument();
+		selectAllButton = findComponent(panel, JButton.class, "Select All");
+		deselectAllButton = findComponent(panel, JButton.class,
+				"Deselect All");
+		okButton = findComponent(panel, JButton.class, "OK");
+	}
+
+	private List<ExampleItem> generateItemList() {
+		String[] sizes = { "1x2", "1x4", "2x2", "2x4", "2x6", "2x8", "2x10",
+				"4x4", "1/2 in", "3/4 in" };
+		String[] materials = { "Pine", "Oak", "Cedar", "Fir", "Maple",
+				"Plywood", "Spruce", "Redwood" };
+		String[] products = { "Lumber", "Board", "Stud", "Sheet", "Post",
+				"Trim", "Decking" };
+		int[] lengths = { 6, 8, 10, 12, 14, 16 };
+
+		Random random = new Random(seed);
+		List<ExampleItem> list = new ArrayList<>(itemCount);
+		for (int index = 0; index < itemCount; index++) {
+			String item = sizes[random.nextInt(sizes.length)] + " "
+					+ materials[random.nextInt(materials.length)] + " "
+					+ products[random.nextInt(products.length)] + " "
+					+ lengths[random.nextInt(lengths.length)] + " ft #"
+					+ (index + 1);
+			list.add(new ExampleItem(item, random.nextInt(10) == 0));
+		}
+
+		return list;
+	}
+
+	private void replaySession(boolean timed) {
+		invokeAndWait(() -> clearSearchField());
+
+		for (String line : session) {
+			String[] tokens = line.split("\\s+", 2);
+			String action = tokens[0].toLowerCase();
+			String argument = (tokens.length > 1) ? tokens[1] : "";
+
+			switch (action) {
+			case "type":
+				for (char c : argument.toCharArray()) {
+					String text = String.valueOf(c);
+					runAction(action, timed,
+							() -> insertString(document.getLength(), text));
+				}
+				break;
+			case "backspace":
+				int count = argument.isEmpty() ? 1 : Integer.parseInt(argument);
+				for (int index = 0; index < count; index++) {
+					runAction(action, timed, () -> backspace());
+				}
+				break;
+			case "paste":
+				runAction(action, timed,
+						() -> insertString(document.getLength(), argument));
+				break;
+			case "clear":
+				runAction(action, timed, () -> clearSearchField());
+				break;
+			case "selectall":
+				runAction(action, timed, () -> selectAllButton.doClick(0));
+				break;
+			case "deselectall":
+				runAction(action, timed, () -> deselectAllButton.doClick(0));
+				break;
+			case "ok":
+				runAction(action, timed, () -> okButton.doClick(0));
+				break;
+			default:
+				throw new IllegalArgumentException(
+						"Unknown session action: " + line);
+			}
+		}
+	}
+
+	private void runAction(String action, boolean timed, Runnable runnable) {
+		invokeAndWait(() -> {
+			long startTime = System.nanoTime();
+			runnable.run();
+			panel.validate();
+			long duration = System.nanoTime() - startTime;
+			if (timed) {
+				getHistogram(action).recordValue(duration);
+			}
+		});
+	}
+
+	private void insertString(int offset, String text) {
+		try {
+			document.insertString(offset, text, null);
+		} catch (BadLocationException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void backspace() {
+		int length = document.getLength();
+		if (length > 0) {
+			try {
+				document.remove(length - 1, 1);
+			} catch (BadLocationException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void clearSearchField() {
+		if (document.getLength() > 0) {
+			searchField.setText("");
+		}
+	}
+
+	private LatencyHistogram getHistogram(String action) {
+		LatencyHistogram histogram = histograms.get(action);
+		if (histogram == null) {
+			histogram = new LatencyHistogram();
+			histograms.put(action, histogram);
+		}
+		return histogram;
+	}
+
+	private void printReport() {
+		System.out.println("items=" + itemCount + " iterations=" + iterations
+				+ " warmup=" + warmupIterations + " seed=" + seed);
+		System.out.println(String.format("%-12s %8s %10s %10s %10s", "action",
+				"count", "p50 ms", "p99 ms", "max ms"));
+		for (Map.Entry<String, LatencyHistogram> entry : histograms
+				.entrySet()) {
+			LatencyHistogram histogram = entry.getValue();
+			System.out.println(String.format("%-12s %8d %10.3f %10.3f %10.3f",
+					entry.getKey(), histogram.getTotalCount(),
+					toMillis(getStatistic(histogram, "p50")),
+					toMillis(getStatistic(histogram, "p99")),
+					toMillis(getStatistic(histogram, "max"))));
+		}
+	}
+
+	private boolean checkBudgets() {
+		boolean passed = true;
+		for (String key : budgets.keySet()) {
+			String action = key.substring(0, key.lastIndexOf('.'));
+			if (!action.equals("*") && !histograms.containsKey(action)) {
+				System.err.println("Budget action didn't run: " + key);
+				passed = false;
+			}
+		}
+		if (!budgets.isEmpty() && histograms.isEmpty()) {
+			System.err.println("No actions ran to check the budgets against");
+			passed = false;
+		}
+
+		for (Map.Entry<String, LatencyHistogram> entry : histograms
+				.entrySet()) {
+			for (String statistic : STATISTICS) {
+				Double budget = budgets.get(entry.getKey() + "." + statistic);
+				if (budget == null) {
+					budget = budgets.get("*." + statistic);
+				}
+				if (budget == null) {
+					continue;
+				}
+
+				double value = toMillis(
+						getStatistic(entry.getValue(), statistic));
+				if (value > budget) {
+					System.err.println(String.format(
+							"Budget exceeded: %s %s %.3f ms > %.3f ms",
+							entry.getKey(), statistic, value, budget));
+					passed = false;
+				}
+			}
+		}
+		return passed;
+	}
+
+	private static long getStatistic(LatencyHistogram histogram,
+			String statistic) {
+		switch (statistic) {
+		case "p50":
+			return histogram.getValueAtPercentile(50.0);
+		case "p99":
+			return histogram.getValueAtPercentile(99.0);
+		default:
+			return histogram.getMaxValue();
+		}
+	}
+
+	private static double toMillis(long nanos) {
+		return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1L);
+	}
+
+	private static <C extends Component> C findComponent(Container container,
+			Class<C> componentClass, String text) {
+		for (Component component : container.getComponents()) {
+			if (componentClass.isInstance(component) && (text == null
+					|| text.equals(((AbstractButton) component).getText()))) {
+				return componentClass.cast(component);
+			}
+			if (component instanceof Container) {
+				C c = findComponent((Container) component, componentClass,
+						text);
+				if (c != null) {
+					return c;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static void invokeAndWait(Runnable runnable) {
+		try {
+			SwingUtilities.invokeAndWait(runnable);
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static Map<String, String> parseArguments(String[] args) {
+		Map<String, String> arguments = new LinkedHashMap<>();
+		for (String arg : args) {
+			int index = arg.indexOf('=');
+			if (index < 1) {
+				throw new IllegalArgumentException(
+						"Arguments must be name=value pairs: " + arg);
+			}
+			arguments.put(arg.substring(0, index), arg.substring(index + 1));
+		}
+		return arguments;
+	}
+
+	private static List<String> readSession(String fileName)
+			throws IOException {
+		List<String> lines = (fileName == null) ? Arrays.asList(DEFAULT_SESSION)
+				: Files.readAllLines(Paths.get(fileName));
+
+		List<String> session = new ArrayList<>();
+		for (String line : lines) {
+			String trimmed = line.trim();
+			if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+				session.add(trimmed);
+			}
+		}
+		return session;
+	}
+
+	private static Map<String, Double> readBudgets(
+			Map<String, String> arguments, List<String> session) {
+		List<String> sessionActions = new ArrayList<>();
+		for (String line : session) {
+			sessionActions.add(line.split("\\s+", 2)[0].toLowerCase());
+		}
+
+		Map<String, Double> budgets = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : arguments.entrySet()) {
+			if (entry.getKey().startsWith("budget.")) {
+				String key = entry.getKey().substring("budget.".length());
+				int index = key.lastIndexOf('.');
+				String statistic = key.substring(index + 1);
+				if (index < 1 || !Arrays.asList(STATISTICS).contains(statistic)) {
+					throw new IllegalArgumentException(
+							"Unknown budget statistic: " + entry.getKey());
+				}
+				String action = key.substring(0, index).toLowerCase();
+				if (!action.equals("*")
+						&& !Arrays.asList(ACTIONS).contains(action)) {
+					throw new IllegalArgumentException(
+							"Unknown budget action: " + entry.getKey());
+				}
+				if (!action.equals("*") && !sessionActions.contains(action)) {
+					throw new IllegalArgumentException(
+							"Budget action isn't in the session: "
+									+ entry.getKey());
+				}
+				double budget = Double.parseDouble(entry.getValue());
+				if (Double.isNaN(budget) || Double.isInfinite(budget)
+						|| budget < 0.0) {
+					throw new IllegalArgumentException(
+							"A budget must be a finite, non-negative number: "
+									+ entry.getKey() + "=" + entry.getValue());
+				}
+				budgets.put(key.toLowerCase(), budget);
+			}
+		}
+		return budgets;
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.ggl.searchable.check.combobox;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * This class caches the <code>TextLayout</code> of the display strings, so
+ * scrolling and re-filtering the searchable, checkbox, combobox don't lay out
+ * the same display string over and over. A <code>TextLayout</code> measures
+ * and draws the text with kerning, fractional metrics, and surrogate pairs
+ * handled the same way, so the highlight lines up with the drawn text.
+ * </p>
+ *
+ * <p>
+ * The cache holds the layouts for one <code>Font</code> and one
+ * <code>FontRenderContext</code>. Asking for a layout with a different
+ * <code>Font</code> or <code>FontRenderContext</code> clears the cache. The
+ * least recently used display strings are dropped when the cache is full.
+ * </p>
+ *
+ * @since 1.8
+ * @version 1
+ */
+class TextLayoutCache {
+
+	private Font font;
+
+	private FontRenderContext fontRenderContext;
+
+	private final Map<String, TextLayout> cache;
+
+	public TextLayoutCache(int maximumSize) {
+		this.cache = new LinkedHashMap<String, TextLayout>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, TextLayout> eldest) {
+				return size() > maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * This method returns the cached <code>TextLayout</code> of a display
+	 * string, creating it if necessary.
+	 *
+	 * @param text              - The display string. It must not be empty.
+	 * @param font              - The <code>Font</code> of the text.
+	 * @param fontRenderContext - The <code>FontRenderContext</code> of the
+	 *                          <code>Graphics</code> that draws the text.
+	 * @return - The <code>TextLayout</code> of the display string.
+	 */
+	public TextLayout getTextLayout(String text, Font font,
+			FontRenderContext fontRenderContext) {
+		if (!font.equals(this.font)
+				|| !fontRenderContext.equals(this.fontRenderContext)) {
+			cache.clear();
+			this.font = font;
+			this.fontRenderContext = fontRenderContext;
+		}
+
+		TextLayout textLayout = cache.get(text);
+		if (textLayout == null) {
+			textLayout = new TextLayout(text, font, fontRenderContext);
+			cache.put(text, textLayout);
+		}
+		return textLayout;
+	}
+
+	public void clear() {
+		cache.clear();
+		font = null;
+		fontRenderContext = null;
+	}
+
+}